@@ -0,0 +1,47 @@
+plugins {
+    application
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation(rootProject)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+application {
+    mainClass.set("edu.kit.ipasir4j.benchmark.ThroughputBenchmark")
+    // a fixed, pre-touched heap keeps Java heap growth out of the native memory measurement
+    applicationDefaultJvmArgs = listOf(
+        "--add-modules", "jdk.incubator.foreign", "--enable-native-access=ALL-UNNAMED",
+        "-Xms256m", "-Xmx256m", "-XX:+AlwaysPreTouch"
+    )
+}
+
+tasks {
+
+    getByName<JavaCompile>("compileJava") {
+        options.compilerArgs = listOf("--add-modules", "jdk.incubator.foreign")
+    }
+
+    getByName<JavaExec>("run") {
+        systemProperty("ipasir4j.lib", rootProject.file("src/test/resources/libcadical.so").absolutePath)
+    }
+}
+
+// Not part of `check`, as the result depends on the machine. Run it before each release.
+tasks.register<JavaExec>("checkScaling") {
+    group = "verification"
+    description = "Fails if multi-threaded solving throughput scales worse than -PminEfficiency (default 0.7)."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set(application.mainClass)
+    jvmArgs = application.applicationDefaultJvmArgs.toList()
+    systemProperty("ipasir4j.lib", rootProject.file("src/test/resources/libcadical.so").absolutePath)
+    args("--min-efficiency", project.findProperty("minEfficiency")?.toString() ?: "0.7")
+}
@@ -0,0 +1,102 @@
+package edu.kit.ipasir4j.benchmark;
+
+/**
+ * A histogram of latencies in nanoseconds with a fixed relative precision, in the style of
+ * HdrHistogram.
+ *
+ * <p>Values are grouped into buckets whose width grows with the magnitude of the value, so every
+ * recorded value is represented with a relative error of less than 1%. Recording a value is a
+ * constant-time array increment.
+ *
+ * <p>This class is not thread safe. Each thread should record into its own histogram, which can
+ * then be combined using {@link #add(LatencyHistogram)}.
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 7;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = Long.SIZE - SUB_BUCKET_BITS;
+
+  private final long[] counts = new long[(BUCKET_COUNT + 1) * SUB_BUCKET_COUNT];
+  private long totalCount;
+  private long min = Long.MAX_VALUE;
+  private long max;
+
+  /**
+   * Records a single value.
+   *
+   * @param value A non-negative latency in nanoseconds.
+   */
+  void record(long value) {
+    counts[indexOf(value)]++;
+    totalCount++;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  /**
+   * Adds all values recorded by another histogram to this one.
+   *
+   * @param other The histogram to add.
+   */
+  void add(LatencyHistogram other) {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += other.counts[i];
+    }
+    totalCount += other.totalCount;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  /**
+   * Returns the number of recorded values.
+   *
+   * @return The total count.
+   */
+  long getTotalCount() {
+    return totalCount;
+  }
+
+  /**
+   * Returns the largest recorded value.
+   *
+   * @return The maximum, or 0 if nothing was recorded.
+   */
+  long getMax() {
+    return max;
+  }
+
+  /**
+   * Returns the value at the given percentile.
+   *
+   * @param percentile A percentile between 0 and 100.
+   * @return The highest value of the bucket containing the percentile, capped at the maximum,
+   *         or 0 if nothing was recorded.
+   */
+  long getValueAtPercentile(double percentile) {
+    if (totalCount == 0) {
+      return 0;
+    }
+    long target = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+    long cumulative = 0;
+    for (int i = 0; i < counts.length; i++) {
+      cumulative += counts[i];
+      if (cumulative >= target) {
+        return Math.max(min, Math.min(max, highestValueAt(i)));
+      }
+    }
+    return max;
+  }
+
+  private static int indexOf(long value) {
+    int shift = Math.max(0, Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+    return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+  }
+
+  private static long highestValueAt(int index) {
+    int shift = Math.max(0, index / SUB_BUCKET_COUNT - 1);
+    long top = index < SUB_BUCKET_COUNT ? index : index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+    return ((top + 1) << shift) - 1;
+  }
+
+}
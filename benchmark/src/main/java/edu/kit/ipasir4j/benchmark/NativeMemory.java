@@ -0,0 +1,67 @@
+package edu.kit.ipasir4j.benchmark;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import jdk.incubator.foreign.CLinker;
+import jdk.incubator.foreign.FunctionDescriptor;
+
+/**
+ * Reads the resident set size of the current process.
+ *
+ * <p>Native solver memory is allocated by the ipasir implementation and is invisible to the JVM,
+ * so the process RSS is used as an approximation. This only works on Linux.
+ */
+final class NativeMemory {
+
+  private static final Path STATUS = Path.of("/proc/self/status");
+
+  // glibc's malloc_trim, or null if not available
+  private static final MethodHandle MALLOC_TRIM = CLinker.systemLookup().lookup("malloc_trim")
+      .map(address -> CLinker.getInstance().downcallHandle(address,
+          MethodType.methodType(int.class, long.class),
+          FunctionDescriptor.of(CLinker.C_INT, CLinker.C_LONG)))
+      .orElse(null);
+
+  private NativeMemory() {
+
+  }
+
+  /**
+   * Returns the current resident set size.
+   *
+   * @return The RSS in bytes, or -1 if it cannot be determined on this platform.
+   */
+  static long residentSetSize() {
+    try {
+      for (String line : Files.readAllLines(STATUS)) {
+        if (line.startsWith("VmRSS:")) {
+          String kibibytes = line.substring("VmRSS:".length()).replace("kB", "").strip();
+          return Long.parseLong(kibibytes) * 1024;
+        }
+      }
+    } catch (IOException | NumberFormatException e) {
+      return -1;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns memory that was freed by native code to the operating system, if the C library
+   * supports it. This should be called before taking a baseline measurement, as memory freed
+   * by earlier solvers would otherwise still count towards the RSS.
+   */
+  static void trim() {
+    if (MALLOC_TRIM == null) {
+      return;
+    }
+    try {
+      int ignored = (int) MALLOC_TRIM.invokeExact(0L);
+    } catch (Throwable e) {
+      throw new IllegalStateException("Error while invoking malloc_trim", e);
+    }
+  }
+
+}
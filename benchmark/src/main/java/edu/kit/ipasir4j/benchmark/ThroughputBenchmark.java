@@ -0,0 +1,331 @@
+package edu.kit.ipasir4j.benchmark;
+
+import edu.kit.ipasir4j.Ipasir;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * A load generator that measures how solving throughput, latency and native memory usage scale
+ * with the number of threads.
+ *
+ * <p>For each configured thread count, every thread repeatedly creates a solver using
+ * {@link Ipasir#init()}, loads an instance from a pre-generated pool, solves it and releases the
+ * solver. The latency of this whole cycle is recorded per solve.
+ *
+ * <p>Native memory is measured separately, between warmup and measurement: every thread creates a
+ * solver, loads and solves an instance and keeps the solver open. Once all threads hold their
+ * solver, the growth of the process RSS since before the solvers were created is divided by the
+ * number of threads. This is repeated a few times and the median is reported. The JVM should
+ * run with a fixed, pre-touched heap, as the Gradle tasks do, so that Java heap growth does not
+ * count as native memory.
+ *
+ * <p>Options (all optional):
+ * <ul>
+ *   <li>{@code --lib <path>}: the ipasir shared library to load. Defaults to the
+ *       {@code ipasir4j.lib} system property.</li>
+ *   <li>{@code --threads <n,n,...>}: the thread counts to run. Defaults to powers of two up to
+ *       the number of available processors. A single-threaded run is always done first, as it is
+ *       the baseline for the scaling efficiency.</li>
+ *   <li>{@code --workload <name>}: {@code random-3sat}, {@code random-5sat} or
+ *       {@code pigeonhole}. Defaults to {@code random-3sat}.</li>
+ *   <li>{@code --size <n>}: the size of the instances, see {@link Workload}. Defaults to 100.</li>
+ *   <li>{@code --instances <n>}: the number of instances in the pool. Defaults to 64.</li>
+ *   <li>{@code --seed <n>}: the seed used to generate the pool. Defaults to 42.</li>
+ *   <li>{@code --warmup <seconds>}: the warmup time per thread count. Defaults to 2.</li>
+ *   <li>{@code --duration <seconds>}: the measurement time per thread count. Defaults to 10.</li>
+ *   <li>{@code --min-efficiency <fraction>}: if the per-thread throughput of any run drops below
+ *       this fraction of the single-threaded run's, the benchmark exits with status 1.
+ *       Defaults to 0.</li>
+ * </ul>
+ */
+public final class ThroughputBenchmark {
+
+  private static final int MEMORY_ROUNDS = 5;
+
+  private final int[][] instances;
+
+  private ThroughputBenchmark(int[][] instances) {
+    this.instances = instances;
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args The command line options, see the class documentation.
+   * @throws InterruptedException If the main thread is interrupted while waiting for a run.
+   */
+  public static void main(String[] args) throws InterruptedException {
+    String lib = System.getProperty("ipasir4j.lib");
+    int[] threadCounts = defaultThreadCounts();
+    var workload = Workload.RANDOM_3SAT;
+    int size = 100;
+    int instanceCount = 64;
+    long seed = 42;
+    long warmupSeconds = 2;
+    long durationSeconds = 10;
+    double minEfficiency = 0;
+
+    for (int i = 0; i < args.length; i += 2) {
+      if (i + 1 == args.length) {
+        throw new IllegalArgumentException("Missing value for option " + args[i]);
+      }
+      String value = args[i + 1];
+      switch (args[i]) {
+        case "--lib" -> lib = value;
+        case "--threads" -> threadCounts = Arrays.stream(value.split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+        case "--workload" -> workload = Workload.byName(value);
+        case "--size" -> size = Integer.parseInt(value);
+        case "--instances" -> instanceCount = Integer.parseInt(value);
+        case "--seed" -> seed = Long.parseLong(value);
+        case "--warmup" -> warmupSeconds = Long.parseLong(value);
+        case "--duration" -> durationSeconds = Long.parseLong(value);
+        case "--min-efficiency" -> minEfficiency = Double.parseDouble(value);
+        default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+    }
+    if (lib == null) {
+      throw new IllegalArgumentException("No ipasir library given, use --lib <path>");
+    }
+    threadCounts = IntStream.concat(IntStream.of(1), Arrays.stream(threadCounts))
+        .distinct()
+        .toArray();
+    System.load(lib);
+
+    var random = new Random(seed);
+    var instances = new int[instanceCount][];
+    for (int i = 0; i < instanceCount; i++) {
+      instances[i] = workload.generate(random, size);
+    }
+    var benchmark = new ThroughputBenchmark(instances);
+
+    System.out.printf("# %s, workload %s, size %d, %d instances, %d s per run%n",
+        Ipasir.signature(), workload, size, instanceCount, durationSeconds);
+    System.out.printf("%8s %12s %10s %10s %10s %10s %10s %14s %10s%n",
+        "threads", "solves/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms",
+        "native KiB/slv", "efficiency");
+
+    // threadCounts[0] is always 1, so the first run sets the baseline
+    double baseline = 0;
+    boolean regressed = false;
+    for (int threads : threadCounts) {
+      benchmark.run(threads, warmupSeconds);
+      long nativeBytesPerSolver = benchmark.measureNativeMemory(threads);
+      var result = benchmark.run(threads, durationSeconds);
+      double perThread = result.throughput() / threads;
+      if (threads == 1) {
+        baseline = perThread;
+      }
+      double efficiency = perThread / baseline;
+      regressed |= efficiency < minEfficiency;
+      var histogram = result.histogram();
+      System.out.printf("%8d %12.1f %10.3f %10.3f %10.3f %10.3f %10.3f %14s %10.2f%n",
+          threads, result.throughput(),
+          millis(histogram.getValueAtPercentile(50)),
+          millis(histogram.getValueAtPercentile(90)),
+          millis(histogram.getValueAtPercentile(99)),
+          millis(histogram.getValueAtPercentile(99.9)),
+          millis(histogram.getMax()),
+          nativeBytesPerSolver < 0 ? "n/a" : nativeBytesPerSolver / 1024,
+          efficiency);
+    }
+    if (regressed) {
+      System.err.printf("Scaling efficiency dropped below %.2f%n", minEfficiency);
+      System.exit(1);
+    }
+  }
+
+  private static int[] defaultThreadCounts() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    var counts = new ArrayList<Integer>();
+    for (int n = 1; n < processors; n *= 2) {
+      counts.add(n);
+    }
+    counts.add(processors);
+    return counts.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1e6;
+  }
+
+  private Result run(int threadCount, long seconds) throws InterruptedException {
+    var workers = new ArrayList<Worker>();
+    var start = new CountDownLatch(1);
+    var done = new CountDownLatch(threadCount);
+    for (int t = 0; t < threadCount; t++) {
+      var worker = new Worker(t, start, done);
+      workers.add(worker);
+      var thread = new Thread(worker, "ipasir4j-benchmark-" + t);
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    long begin = System.nanoTime();
+    start.countDown();
+    TimeUnit.SECONDS.sleep(seconds);
+    workers.forEach(Worker::stop);
+    done.await();
+    double elapsedSeconds = (System.nanoTime() - begin) / 1e9;
+
+    var histogram = new LatencyHistogram();
+    for (var worker : workers) {
+      if (worker.failure != null) {
+        throw new IllegalStateException("Benchmark thread failed", worker.failure);
+      }
+      histogram.add(worker.histogram);
+    }
+    return new Result(histogram.getTotalCount() / elapsedSeconds, histogram);
+  }
+
+  private long measureNativeMemory(int threadCount) throws InterruptedException {
+    // RSS is noisy for small solvers, so take the median of several rounds
+    var rounds = new long[MEMORY_ROUNDS];
+    for (int i = 0; i < rounds.length; i++) {
+      rounds[i] = measureNativeMemoryOnce(threadCount);
+      if (rounds[i] < 0) {
+        return -1;
+      }
+    }
+    Arrays.sort(rounds);
+    return rounds[rounds.length / 2];
+  }
+
+  private long measureNativeMemoryOnce(int threadCount) throws InterruptedException {
+    var holders = new ArrayList<Holder>();
+    var ready = new CountDownLatch(threadCount);
+    var start = new CountDownLatch(1);
+    var held = new CountDownLatch(threadCount);
+    var release = new CountDownLatch(1);
+    var done = new CountDownLatch(threadCount);
+    for (int t = 0; t < threadCount; t++) {
+      var holder = new Holder(instances[t % instances.length], ready, start, held, release, done);
+      holders.add(holder);
+      var thread = new Thread(holder, "ipasir4j-benchmark-memory-" + t);
+      thread.setDaemon(true);
+      thread.start();
+    }
+    // take the baseline once the threads exist, so only the solvers themselves are measured
+    ready.await();
+    NativeMemory.trim();
+    long baselineRss = NativeMemory.residentSetSize();
+    start.countDown();
+    held.await();
+    NativeMemory.trim();
+    long heldRss = NativeMemory.residentSetSize();
+    release.countDown();
+    done.await();
+    for (var holder : holders) {
+      if (holder.failure != null) {
+        throw new IllegalStateException("Benchmark thread failed", holder.failure);
+      }
+    }
+    if (baselineRss < 0 || heldRss < 0) {
+      return -1;
+    }
+    return Math.max(0, heldRss - baselineRss) / threadCount;
+  }
+
+  private record Result(double throughput, LatencyHistogram histogram) {
+
+  }
+
+  // creates a solver for an instance and keeps it open until released
+  private static final class Holder implements Runnable {
+
+    private final int[] instance;
+    private final CountDownLatch ready;
+    private final CountDownLatch start;
+    private final CountDownLatch held;
+    private final CountDownLatch release;
+    private final CountDownLatch done;
+    private Throwable failure;
+
+    private Holder(int[] instance, CountDownLatch ready, CountDownLatch start,
+        CountDownLatch held, CountDownLatch release, CountDownLatch done) {
+      this.instance = instance;
+      this.ready = ready;
+      this.start = start;
+      this.held = held;
+      this.release = release;
+      this.done = done;
+    }
+
+    @Override
+    public void run() {
+      boolean holding = false;
+      ready.countDown();
+      try {
+        start.await();
+      } catch (InterruptedException e) {
+        failure = e;
+        held.countDown();
+        done.countDown();
+        return;
+      }
+      try (var solver = Ipasir.init()) {
+        for (int lit : instance) {
+          solver.add(lit);
+        }
+        solver.solve();
+        holding = true;
+        held.countDown();
+        release.await();
+      } catch (Throwable e) {
+        failure = e;
+      } finally {
+        if (!holding) {
+          held.countDown();
+        }
+        done.countDown();
+      }
+    }
+  }
+
+  private final class Worker implements Runnable {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final CountDownLatch start;
+    private final CountDownLatch done;
+    private int next;
+    private volatile boolean running = true;
+    private Throwable failure;
+
+    private Worker(int index, CountDownLatch start, CountDownLatch done) {
+      this.next = index;
+      this.start = start;
+      this.done = done;
+    }
+
+    private void stop() {
+      running = false;
+    }
+
+    @Override
+    public void run() {
+      try {
+        start.await();
+        while (running) {
+          int[] instance = instances[next++ % instances.length];
+          long begin = System.nanoTime();
+          try (var solver = Ipasir.init()) {
+            for (int lit : instance) {
+              solver.add(lit);
+            }
+            solver.solve();
+          }
+          histogram.record(System.nanoTime() - begin);
+        }
+      } catch (Throwable e) {
+        failure = e;
+      } finally {
+        done.countDown();
+      }
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package edu.kit.ipasir4j.benchmark;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Generators for the SAT instances used by the benchmark.<br>
+ * Instances are returned as sequences of 0-terminated clauses, ready to be passed to
+ * {@link edu.kit.ipasir4j.Solver#add(int)}.
+ */
+enum Workload {
+
+  /**
+   * Uniform random 3-SAT at the satisfiability threshold (4.26 clauses per variable).
+   * Each clause consists of 3 distinct variables. The size is the number of variables.
+   */
+  RANDOM_3SAT {
+    @Override
+    int[] generate(Random random, int size) {
+      return randomKSat(random, 3, size, (int) Math.round(4.26 * size));
+    }
+  },
+
+  /**
+   * Uniform random 5-SAT at the satisfiability threshold (21.1 clauses per variable).
+   * Each clause consists of 5 distinct variables. The size is the number of variables.
+   */
+  RANDOM_5SAT {
+    @Override
+    int[] generate(Random random, int size) {
+      return randomKSat(random, 5, size, (int) Math.round(21.1 * size));
+    }
+  },
+
+  /**
+   * The pigeonhole principle with one more pigeon than holes, a structured unsatisfiable
+   * formula that is hard for resolution. The size is the number of holes.
+   */
+  PIGEONHOLE {
+    @Override
+    int[] generate(Random random, int size) {
+      int pigeons = size + 1;
+      var formula = IntStream.builder();
+      for (int p = 0; p < pigeons; p++) {
+        for (int h = 0; h < size; h++) {
+          formula.add(p * size + h + 1);
+        }
+        formula.add(0);
+      }
+      for (int h = 0; h < size; h++) {
+        for (int p = 0; p < pigeons; p++) {
+          for (int q = p + 1; q < pigeons; q++) {
+            formula.add(-(p * size + h + 1)).add(-(q * size + h + 1)).add(0);
+          }
+        }
+      }
+      return formula.build().toArray();
+    }
+  };
+
+  /**
+   * Generates an instance of this workload.
+   *
+   * @param random The source of randomness. Structured workloads may ignore it.
+   * @param size The size parameter of the instance. Its meaning depends on the workload.
+   * @return The instance as a sequence of 0-terminated clauses.
+   */
+  abstract int[] generate(Random random, int size);
+
+  /**
+   * Gets the workload with the given command line name, e.g. {@code random-3sat}.
+   *
+   * @param name The name of the workload.
+   * @return The workload.
+   * @throws IllegalArgumentException If there is no such workload.
+   */
+  static Workload byName(String name) {
+    return valueOf(name.toUpperCase().replace('-', '_'));
+  }
+
+  private static int[] randomKSat(Random random, int k, int variables, int clauses) {
+    if (variables < k) {
+      throw new IllegalArgumentException("Random " + k + "-SAT needs at least " + k + " variables");
+    }
+    var formula = new int[clauses * (k + 1)];
+    int i = 0;
+    for (int c = 0; c < clauses; c++) {
+      int clauseStart = i;
+      while (i < clauseStart + k) {
+        int variable = random.nextInt(variables) + 1;
+        if (!contains(formula, clauseStart, i, variable)) {
+          formula[i++] = random.nextBoolean() ? variable : -variable;
+        }
+      }
+      formula[i++] = 0;
+    }
+    return formula;
+  }
+
+  private static boolean contains(int[] formula, int from, int to, int variable) {
+    for (int j = from; j < to; j++) {
+      if (Math.abs(formula[j]) == variable) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -1,2 +1,3 @@
 rootProject.name = "ipasir4j"
 
+include("benchmark")
@@ -19,6 +19,8 @@ public abstract class AbstractLearnCallback<T extends SolverData>
 
   @Override
   public final void onClauseLearn(MemoryAddress dataAddr, MemoryAddress clauseAddr) {
+    var event = new LearnCallbackEvent();
+    event.begin();
     MemorySegment clauseSegment = MemorySegment.globalNativeSegment().asSlice(clauseAddr);
     int length = 0;
     long intSize = CLinker.C_INT.byteSize();
@@ -31,6 +33,11 @@ public abstract class AbstractLearnCallback<T extends SolverData>
         .toArray();
     T data = dataFrom(dataAddr);
     onClauseLearn(data, clause);
+    event.end();
+    if (event.shouldCommit()) {
+      event.clauseLength = clause.length;
+      event.commit();
+    }
   }
 
   /**
@@ -14,7 +14,15 @@ public abstract class AbstractTerminateCallback<T extends SolverData>
 
   @Override
   public final int onTerminateQuestion(MemoryAddress dataAddr) {
-    return onTerminateQuestion(dataFrom(dataAddr)) ? 1 : 0;
+    var event = new TerminateCallbackEvent();
+    event.begin();
+    boolean terminate = onTerminateQuestion(dataFrom(dataAddr));
+    event.end();
+    if (event.shouldCommit()) {
+      event.terminate = terminate;
+      event.commit();
+    }
+    return terminate ? 1 : 0;
   }
 
   /**
@@ -0,0 +1,163 @@
+package edu.kit.ipasir4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import jdk.incubator.foreign.CLinker;
+import jdk.incubator.foreign.FunctionDescriptor;
+import jdk.incubator.foreign.MemoryAddress;
+import jdk.incubator.foreign.ResourceScope;
+
+/**
+ * A table of registered ipasir callbacks of one kind.
+ *
+ * <p>Instead of generating an upcall stub for every registered callback, there is exactly one
+ * static upcall stub per callback kind ({@link #TERMINATE_STUB} and {@link #LEARN_STUB}).
+ * The {@code data} pointer handed to ipasir is not the user's data pointer, but a handle into this
+ * table. When the stub is invoked, the handle is used to look up the actual Java callback and the
+ * user's data pointer, which are then called with the original arguments.
+ *
+ * <p>The table is made up of lazily allocated pages, so lookups and updates never lock.
+ *
+ * @param <C> The type of callback stored in this registry.
+ */
+final class CallbackRegistry<C> {
+
+  private static final int PAGE_BITS = 10;
+  private static final int PAGE_SIZE = 1 << PAGE_BITS;
+  private static final int PAGE_MASK = PAGE_SIZE - 1;
+  private static final int MAX_PAGES = 1024;
+
+  /**
+   * The registry for terminate callbacks.
+   */
+  static final CallbackRegistry<SolverTerminateCallback> TERMINATE = new CallbackRegistry<>();
+
+  /**
+   * The registry for learn callbacks.
+   */
+  static final CallbackRegistry<SolverLearnCallback> LEARN = new CallbackRegistry<>();
+
+  /**
+   * The function pointer to pass to {@code ipasir_set_terminate}, along with a handle from
+   * {@link #TERMINATE}.
+   */
+  static final MemoryAddress TERMINATE_STUB = upcallStub("terminateUpcall",
+      MethodType.methodType(int.class, MemoryAddress.class),
+      FunctionDescriptor.of(CLinker.C_INT, CLinker.C_POINTER));
+
+  /**
+   * The function pointer to pass to {@code ipasir_set_learn}, along with a handle from
+   * {@link #LEARN}.
+   */
+  static final MemoryAddress LEARN_STUB = upcallStub("learnUpcall",
+      MethodType.methodType(void.class, MemoryAddress.class, MemoryAddress.class),
+      FunctionDescriptor.ofVoid(CLinker.C_POINTER, CLinker.C_POINTER));
+
+  private final AtomicReferenceArray<AtomicReferenceArray<Entry<C>>> pages
+      = new AtomicReferenceArray<>(MAX_PAGES);
+  private final AtomicInteger nextHandle = new AtomicInteger();
+  private final ConcurrentLinkedQueue<Integer> freeHandles = new ConcurrentLinkedQueue<>();
+
+  private CallbackRegistry() {
+
+  }
+
+  private static MemoryAddress upcallStub(
+      String name, MethodType methodType, FunctionDescriptor descriptor
+  ) {
+    MethodHandle target;
+    try {
+      target = MethodHandles.lookup().findStatic(CallbackRegistry.class, name, methodType);
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new AssertionError("Could not find static method", e);
+    }
+    return CLinker.getInstance().upcallStub(target, descriptor, ResourceScope.globalScope());
+  }
+
+  private static int terminateUpcall(MemoryAddress handle) {
+    var entry = TERMINATE.lookup(handle);
+    return entry == null ? 0 : entry.callback().onTerminateQuestion(entry.data());
+  }
+
+  private static void learnUpcall(MemoryAddress handle, MemoryAddress clause) {
+    var entry = LEARN.lookup(handle);
+    if (entry != null) {
+      entry.callback().onClauseLearn(entry.data(), clause);
+    }
+  }
+
+  /**
+   * Converts a handle to the address that must be passed to ipasir as {@code data} pointer.
+   *
+   * @param handle A handle obtained from {@link #allocate()}.
+   * @return A (non-null) address encoding the handle.
+   */
+  static MemoryAddress toAddress(int handle) {
+    return MemoryAddress.ofLong(handle + 1L);
+  }
+
+  /**
+   * Reserves a new, empty slot in this registry.
+   *
+   * @return The handle of the slot.
+   * @throws IllegalStateException If the registry is full.
+   */
+  int allocate() {
+    Integer free = freeHandles.poll();
+    if (free != null) {
+      return free;
+    }
+    int handle = nextHandle.getAndIncrement();
+    int pageIndex = handle >>> PAGE_BITS;
+    if (pageIndex >= MAX_PAGES) {
+      nextHandle.decrementAndGet();
+      throw new IllegalStateException("Too many callbacks registered");
+    }
+    if (pages.get(pageIndex) == null) {
+      pages.compareAndSet(pageIndex, null, new AtomicReferenceArray<>(PAGE_SIZE));
+    }
+    return handle;
+  }
+
+  /**
+   * Stores a callback and its data pointer in the given slot, replacing any previous entry.
+   *
+   * @param handle A handle obtained from {@link #allocate()}.
+   * @param data The data pointer to pass to the callback.
+   * @param callback The callback.
+   */
+  void set(int handle, MemoryAddress data, C callback) {
+    page(handle).set(handle & PAGE_MASK, new Entry<>(data, callback));
+  }
+
+  /**
+   * Clears the given slot and makes it available for reuse.
+   *
+   * @param handle A handle obtained from {@link #allocate()}. It must not be used afterwards.
+   */
+  void free(int handle) {
+    page(handle).set(handle & PAGE_MASK, null);
+    freeHandles.offer(handle);
+  }
+
+  private Entry<C> lookup(MemoryAddress address) {
+    long handle = address.toRawLongValue() - 1;
+    if (handle < 0 || handle >= (long) MAX_PAGES * PAGE_SIZE) {
+      return null;
+    }
+    var page = pages.get((int) handle >>> PAGE_BITS);
+    return page == null ? null : page.get((int) handle & PAGE_MASK);
+  }
+
+  private AtomicReferenceArray<Entry<C>> page(int handle) {
+    return pages.get(handle >>> PAGE_BITS);
+  }
+
+  private record Entry<C>(MemoryAddress data, C callback) {
+
+  }
+}
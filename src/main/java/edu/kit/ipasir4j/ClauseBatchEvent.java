@@ -0,0 +1,45 @@
+package edu.kit.ipasir4j;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
+import jdk.jfr.Timespan;
+
+/**
+ * A JFR event summarizing a batch of {@link Solver#add(int)} calls, i.e. all clauses added to a
+ * solver between its creation or the previous {@link Solver#solve()} and the next one.
+ *
+ * <p>The event itself has no duration. Its {@code addTime} field only counts the time spent
+ * inside {@code ipasir_add}, so work the application does between two calls, such as parsing or
+ * generating the formula, is not included. Batches with an {@code addTime} below the
+ * {@code addTimeThreshold} setting are not recorded.
+ */
+@Name("edu.kit.ipasir4j.ClauseBatch")
+@Label("Clause Batch")
+@Category("ipasir4j")
+@Description("Time spent in ipasir_add for the clauses added between two calls to ipasir_solve")
+final class ClauseBatchEvent extends Event {
+
+  @Label("Add Time")
+  @Description("Total time spent in ipasir_add")
+  @Timespan(Timespan.NANOSECONDS)
+  long addTime;
+
+  @Label("Clauses")
+  long clauses;
+
+  @Label("Literals")
+  long literals;
+
+  @Name("addTimeThreshold")
+  @Label("Add Time Threshold")
+  @Description("Record only batches whose add time is at least this long")
+  @SettingDefinition
+  boolean addTimeThreshold(TimespanThresholdSetting setting) {
+    return addTime >= setting.getNanos();
+  }
+
+}
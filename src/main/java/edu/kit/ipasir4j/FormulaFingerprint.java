@@ -0,0 +1,87 @@
+package edu.kit.ipasir4j;
+
+/**
+ * Computes a 64-bit fingerprint of a CNF formula from its literals.<br>
+ * Literals are passed to {@link #add(int)} the same way they are passed to {@link Solver#add(int)},
+ * so a fingerprint can be computed alongside loading a formula into a solver.
+ *
+ * <p>The fingerprint depends on the order of clauses and literals. Two formulas that are only
+ * permutations of each other will most likely have different fingerprints. Besides the hash value,
+ * the number of clauses and literals is tracked, so that hash collisions between formulas of
+ * different sizes can be detected.
+ *
+ * @see LearnedClauseStore
+ */
+public final class FormulaFingerprint {
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private long hash = FNV_OFFSET_BASIS;
+  private long clauses;
+  private long literals;
+
+  /**
+   * Computes the fingerprint of a formula given as a sequence of 0-terminated clauses.
+   *
+   * @param formula The literals of the formula, with a 0 after each clause.
+   * @return The fingerprint of the formula.
+   */
+  public static FormulaFingerprint of(int... formula) {
+    var fingerprint = new FormulaFingerprint();
+    for (int litOrZero : formula) {
+      fingerprint.add(litOrZero);
+    }
+    return fingerprint;
+  }
+
+  /**
+   * Adds a literal to the fingerprinted formula.
+   *
+   * @param litOrZero A variable literal (-n or +n) or 0 to mark the end of the clause.
+   * @return This object.
+   */
+  public FormulaFingerprint add(int litOrZero) {
+    hash = (hash ^ (litOrZero & 0xffffffffL)) * FNV_PRIME;
+    if (litOrZero == 0) {
+      clauses++;
+    } else {
+      literals++;
+    }
+    return this;
+  }
+
+  /**
+   * Returns the number of clauses added so far.
+   *
+   * @return The number of 0 literals passed to {@link #add(int)}.
+   */
+  public long getClauses() {
+    return clauses;
+  }
+
+  /**
+   * Returns the number of literals added so far, not counting the 0 at the end of each clause.
+   *
+   * @return The number of non-zero literals passed to {@link #add(int)}.
+   */
+  public long getLiterals() {
+    return literals;
+  }
+
+  /**
+   * Returns the fingerprint of all literals added so far.
+   *
+   * @return The fingerprint value.
+   */
+  public long value() {
+    long h = hash;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+}
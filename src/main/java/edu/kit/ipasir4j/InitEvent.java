@@ -0,0 +1,20 @@
+package edu.kit.ipasir4j;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A JFR event recorded for calls to {@link Ipasir#init()}.
+ */
+@Name("edu.kit.ipasir4j.Init")
+@Label("Solver Init")
+@Category("ipasir4j")
+@Description("Creation of a solver via ipasir_init")
+@Threshold("1 ms")
+final class InitEvent extends Event {
+
+}
@@ -54,11 +54,16 @@ public final class Ipasir {
    *         returned by the ipasir implementation.
    */
   public static Solver init() {
+    var event = new InitEvent();
+    event.begin();
+    MemoryAddress pointer;
     try {
-      return new Solver((MemoryAddress) INIT.invokeExact());
+      pointer = (MemoryAddress) INIT.invokeExact();
     } catch (Throwable e) {
       throw new IpasirInvocationException(e);
     }
+    event.commit();
+    return new Solver(pointer);
   }
 
   static MethodHandle lookupFunction(
@@ -0,0 +1,26 @@
+package edu.kit.ipasir4j;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A JFR event recorded for upcalls to {@link AbstractLearnCallback}.
+ *
+ * <p>Learn callbacks are invoked very frequently, so only unusually slow invocations are recorded
+ * by default.
+ */
+@Name("edu.kit.ipasir4j.LearnCallback")
+@Label("Learn Callback")
+@Category({"ipasir4j", "Callbacks"})
+@Description("Processing of a learned clause by a learn callback")
+@Threshold("100 us")
+final class LearnCallbackEvent extends Event {
+
+  @Label("Clause Length")
+  int clauseLength;
+
+}
@@ -0,0 +1,422 @@
+package edu.kit.ipasir4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import jdk.incubator.foreign.MemoryAccess;
+import jdk.incubator.foreign.MemoryAddress;
+import jdk.incubator.foreign.MemorySegment;
+import jdk.incubator.foreign.ResourceScope;
+
+/**
+ * A persistent store for clauses learned by solvers, allowing new solvers for the same formula
+ * to start with the knowledge of previous ones.
+ *
+ * <p>Clauses are kept in one append-only log file per formula, named after the formula's
+ * {@link FormulaFingerprint fingerprint}. A log file starts with a header containing a format
+ * version and the number of clauses and literals of the formula, which are checked whenever the
+ * log is used. Each clause is then stored as a sequence of zigzag-encoded variable-length literals
+ * terminated by a zero byte. Log files are memory-mapped for reading. An incomplete clause at the
+ * end of a log, e.g. from an interrupted write, is ignored when reading and cut off before the
+ * next write.
+ *
+ * <p>Only clauses up to a maximum length are stored, and no clause is stored twice. When
+ * {@link #preload(Solver, FormulaFingerprint) preloading}, the shortest clauses are added first,
+ * up to a maximum number of clauses.
+ *
+ * <p><strong>IMPORTANT!</strong> A learned clause is only implied by the clauses the solver knew
+ * when learning it. Clauses must therefore only be
+ * {@link #record(Solver, FormulaFingerprint) recorded} while the solver contains exactly the
+ * fingerprinted formula. Assumptions are fine, but clauses added on top of the formula would make
+ * the recorded clauses unsound for other solvers.
+ *
+ * <p>This class is thread safe, and any number of solvers may record into the same log at once.
+ * A log is only read from disk the first time it is used. Afterwards, the store keeps its stored
+ * clauses in memory to avoid duplicates, along with the clauses to preload, so that preloading
+ * does not have to read the log again.
+ * Concurrent writes to the same store directory from multiple processes or multiple store
+ * instances are not supported.
+ */
+public final class LearnedClauseStore {
+
+  private static final String EXTENSION = ".lrn";
+
+  // header: magic, version, formula clauses, formula literals
+  private static final int MAGIC = 0x49504c43;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 24;
+
+  private final Path directory;
+  private final int maxLength;
+  private final int maxClauses;
+
+  // logs that have been used, by fingerprint value; guarded by this
+  private final Map<Long, Log> logs = new HashMap<>();
+
+  /**
+   * Creates a store backed by the given directory.
+   *
+   * @param directory The directory containing the log files. It is created if it does not exist.
+   * @param maxLength The maximum length of clauses that are stored.
+   * @param maxClauses The maximum number of clauses added to a solver by
+   *                   {@link #preload(Solver, FormulaFingerprint)}.
+   * @throws IOException If the directory cannot be created.
+   */
+  public LearnedClauseStore(Path directory, int maxLength, int maxClauses) throws IOException {
+    if (maxLength <= 0) {
+      throw new IllegalArgumentException("maxLength must be positive");
+    }
+    if (maxClauses < 0) {
+      throw new IllegalArgumentException("maxClauses must not be negative");
+    }
+    this.directory = Files.createDirectories(directory);
+    this.maxLength = maxLength;
+    this.maxClauses = maxClauses;
+  }
+
+  /**
+   * Adds the stored clauses for a formula to a solver.<br>
+   * This should be done after the formula itself has been added to the solver.
+   *
+   * @param solver The solver to add the clauses to.
+   * @param formula The fingerprint of the formula the solver contains.
+   * @return The number of clauses that were added.
+   * @throws IOException If the log file cannot be read, or if it belongs to a different formula.
+   */
+  public int preload(Solver solver, FormulaFingerprint formula) throws IOException {
+    var key = new Key(formula.value(), formula.getClauses(), formula.getLiterals());
+    List<int[]> clauses;
+    synchronized (this) {
+      clauses = log(key).preload;
+    }
+    for (int[] clause : clauses) {
+      for (int lit : clause) {
+        solver.add(lit);
+      }
+      solver.add(0);
+    }
+    return clauses.size();
+  }
+
+  /**
+   * Starts recording the clauses learned by a solver.<br>
+   * This replaces the solver's current learn callback.
+   *
+   * @param solver The solver whose learned clauses should be recorded.
+   * @param formula The fingerprint of the formula the solver contains.
+   * @return A {@link Recorder} that must be closed to write the learned clauses to the store.
+   * @throws IOException If the existing log file cannot be read, or if it belongs to a different
+   *                     formula.
+   */
+  public Recorder record(Solver solver, FormulaFingerprint formula) throws IOException {
+    var key = new Key(formula.value(), formula.getClauses(), formula.getLiterals());
+    synchronized (this) {
+      log(key);
+    }
+    return new Recorder(solver, key);
+  }
+
+  /**
+   * Reads the clauses stored for a formula from disk, in the order they were written.
+   *
+   * @param formula The fingerprint of the formula.
+   * @return The stored clauses of at most the maximum length, without duplicates.
+   * @throws IOException If the log file cannot be read, or if it belongs to a different formula.
+   */
+  synchronized List<int[]> clauses(FormulaFingerprint formula) throws IOException {
+    return scan(new Key(formula.value(), formula.getClauses(), formula.getLiterals())).clauses;
+  }
+
+  private Path logFile(long fingerprint) {
+    return directory.resolve(String.format("%016x", fingerprint) + EXTENSION);
+  }
+
+  private Log log(Key key) throws IOException {
+    var log = logs.get(key.value());
+    if (log == null) {
+      var contents = scan(key);
+      log = new Log(key, contents.known, contents.end);
+      log.preload = preloadPrefix(contents.clauses);
+      logs.put(key.value(), log);
+    } else if (!log.key.equals(key)) {
+      throw differentFormula(key);
+    }
+    return log;
+  }
+
+  private Contents scan(Key key) throws IOException {
+    var file = logFile(key.value());
+    var contents = new Contents();
+    long size = Files.exists(file) ? Files.size(file) : 0;
+    if (size < HEADER_SIZE) {
+      // missing or incomplete header, the whole file is rewritten on the next append
+      return contents;
+    }
+    try (var scope = ResourceScope.newConfinedScope()) {
+      var segment = MemorySegment.mapFile(file, 0, size, FileChannel.MapMode.READ_ONLY, scope);
+      if (MemoryAccess.getIntAtOffset(segment, 0, ByteOrder.BIG_ENDIAN) != MAGIC
+          || MemoryAccess.getIntAtOffset(segment, 4, ByteOrder.BIG_ENDIAN) != VERSION) {
+        throw new IOException(file + " is not a learned clause log of version " + VERSION);
+      }
+      if (MemoryAccess.getLongAtOffset(segment, 8, ByteOrder.BIG_ENDIAN) != key.clauses()
+          || MemoryAccess.getLongAtOffset(segment, 16, ByteOrder.BIG_ENDIAN) != key.literals()) {
+        throw differentFormula(key);
+      }
+      contents.end = HEADER_SIZE;
+      var clause = new int[maxLength];
+      int length = 0;
+      long offset = HEADER_SIZE;
+      while (offset < size) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+          if (offset == size || shift > 28) {
+            // truncated or corrupt tail, e.g. from an interrupted write
+            return contents;
+          }
+          b = MemoryAccess.getByteAtOffset(segment, offset++);
+          value |= (b & 0x7f) << shift;
+          shift += 7;
+        } while ((b & 0x80) != 0);
+
+        if (value == 0) {
+          var encoded = segment.asSlice(contents.end, offset - contents.end).toByteArray();
+          // clauses longer than maxLength may stem from a store with a different configuration
+          if (length > 0 && contents.known.add(ByteBuffer.wrap(encoded)) && length <= maxLength) {
+            contents.clauses.add(Arrays.copyOf(clause, length));
+          }
+          length = 0;
+          contents.end = offset;
+        } else {
+          if (length < maxLength) {
+            clause[length] = (value >>> 1) ^ -(value & 1);
+          }
+          length++;
+        }
+      }
+    }
+    return contents;
+  }
+
+  private synchronized int append(Key key, List<byte[]> clauses) throws IOException {
+    var log = log(key);
+    var buffer = ByteBuffer.allocate(HEADER_SIZE + clauses.stream().mapToInt(c -> c.length).sum());
+    if (log.end == 0) {
+      buffer.putInt(MAGIC).putInt(VERSION).putLong(key.clauses()).putLong(key.literals());
+    }
+    var added = new ArrayList<ByteBuffer>();
+    for (byte[] clause : clauses) {
+      var wrapped = ByteBuffer.wrap(clause);
+      if (!log.known.contains(wrapped)) {
+        added.add(wrapped);
+        buffer.put(clause);
+      }
+    }
+    if (added.isEmpty()) {
+      return 0;
+    }
+    buffer.flip();
+    try (var channel = FileChannel.open(logFile(key.value()),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      // cut off anything after the last complete clause, so it cannot merge with new data
+      if (channel.size() > log.end) {
+        channel.truncate(log.end);
+      }
+      channel.position(log.end);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    log.end += buffer.limit();
+    log.known.addAll(added);
+    // new clauses only enter the prefix if it has room or they are shorter than its last clause
+    int longest = log.preload.isEmpty() ? 0 : log.preload.get(log.preload.size() - 1).length;
+    var candidates = added.stream()
+        .map(clause -> decode(clause.array()))
+        .filter(clause -> log.preload.size() < maxClauses || clause.length < longest)
+        .toList();
+    if (!candidates.isEmpty()) {
+      var merged = new ArrayList<>(log.preload);
+      merged.addAll(candidates);
+      log.preload = preloadPrefix(merged);
+    }
+    return added.size();
+  }
+
+  // the shortest clauses, at most maxClauses; clauses of equal length keep their order
+  private List<int[]> preloadPrefix(List<int[]> clauses) {
+    return clauses.stream()
+        .sorted(Comparator.comparingInt(clause -> clause.length))
+        .limit(maxClauses)
+        .toList();
+  }
+
+  private static IOException differentFormula(Key key) {
+    return new IOException(String.format(
+        "Learned clause log %016x belongs to a different formula", key.value()));
+  }
+
+  private static int[] decode(byte[] encoded) {
+    var clause = new int[encoded.length];
+    int length = 0;
+    int value = 0;
+    int shift = 0;
+    for (byte b : encoded) {
+      value |= (b & 0x7f) << shift;
+      shift += 7;
+      if ((b & 0x80) == 0) {
+        if (value == 0) {
+          break;
+        }
+        clause[length++] = (value >>> 1) ^ -(value & 1);
+        value = 0;
+        shift = 0;
+      }
+    }
+    return Arrays.copyOf(clause, length);
+  }
+
+  private static byte[] encode(int[] clause) {
+    var out = new ByteArrayOutputStream(clause.length + 1);
+    for (int lit : clause) {
+      int value = (lit << 1) ^ (lit >> 31);
+      while ((value & ~0x7f) != 0) {
+        out.write((value & 0x7f) | 0x80);
+        value >>>= 7;
+      }
+      out.write(value);
+    }
+    out.write(0);
+    return out.toByteArray();
+  }
+
+  private record Key(long value, long clauses, long literals) {
+
+  }
+
+  private static final class Contents {
+
+    private final List<int[]> clauses = new ArrayList<>();
+    private final Set<ByteBuffer> known = new HashSet<>();
+    // offset after the header and the last complete clause, or 0 if there is no valid header
+    private long end;
+  }
+
+  private static final class Log {
+
+    private final Key key;
+    private final Set<ByteBuffer> known;
+    private long end;
+    // immutable, so it can be used outside the lock
+    private List<int[]> preload;
+
+    private Log(Key key, Set<ByteBuffer> known, long end) {
+      this.key = key;
+      this.known = known;
+      this.end = end;
+    }
+  }
+
+  /**
+   * Collects the clauses learned by a solver and writes them to the store.<br>
+   * Clauses are collected on the solving thread, while {@link #flush()} and {@link #close()} may
+   * be called from any thread.
+   *
+   * @see #record(Solver, FormulaFingerprint)
+   */
+  public final class Recorder implements AutoCloseable {
+
+    private final Key key;
+    private final Set<ByteBuffer> seen = new HashSet<>();
+    private List<byte[]> pending = new ArrayList<>();
+    private volatile boolean closed;
+
+    private Recorder(Solver solver, Key key) {
+      this.key = key;
+      var callback = new AbstractLearnCallback<NullData>() {
+        @Override
+        protected void onClauseLearn(NullData data, int[] clause) {
+          capture(clause);
+        }
+
+        @Override
+        public NullData dataFrom(MemoryAddress dataAddr) {
+          return NullData.INSTANCE;
+        }
+      };
+      // checked before the clause is copied, so a closed recorder costs next to nothing
+      solver.setLearn(MemoryAddress.NULL, maxLength, (data, clause) -> {
+        if (!closed) {
+          callback.onClauseLearn(data, clause);
+        }
+      });
+    }
+
+    private synchronized void capture(int[] clause) {
+      if (closed || clause.length == 0 || clause.length > maxLength) {
+        return;
+      }
+      Arrays.sort(clause);
+      var encoded = encode(clause);
+      if (seen.add(ByteBuffer.wrap(encoded))) {
+        pending.add(encoded);
+      }
+    }
+
+    /**
+     * Writes all clauses learned since the last flush to the store, except those that are already
+     * stored.
+     *
+     * @return The number of clauses written.
+     * @throws IOException If the log file cannot be written.
+     */
+    public int flush() throws IOException {
+      List<byte[]> clauses;
+      synchronized (this) {
+        if (pending.isEmpty()) {
+          return 0;
+        }
+        clauses = pending;
+        pending = new ArrayList<>();
+      }
+      try {
+        return append(key, clauses);
+      } catch (IOException e) {
+        synchronized (this) {
+          clauses.addAll(pending);
+          pending = clauses;
+        }
+        throw e;
+      }
+    }
+
+    /**
+     * Flushes the remaining clauses and stops recording.<br>
+     * The learn callback stays registered with the solver, but ignores all further clauses
+     * without copying them.
+     *
+     * @throws IOException If the log file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+      if (!closed) {
+        closed = true;
+        flush();
+      }
+    }
+  }
+}
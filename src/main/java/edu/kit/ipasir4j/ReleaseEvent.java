@@ -0,0 +1,28 @@
+package edu.kit.ipasir4j;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A JFR event recorded for calls to {@link Solver#release()}.
+ */
+@Name("edu.kit.ipasir4j.Release")
+@Label("Solver Release")
+@Category("ipasir4j")
+@Description("Release of a solver and its native memory via ipasir_release")
+@Threshold("1 ms")
+final class ReleaseEvent extends Event {
+
+  @Label("Variables")
+  @Description("Highest variable index passed to the solver")
+  int variables;
+
+  @Label("Clauses")
+  @Description("Number of clauses added to the solver")
+  long clauses;
+
+}
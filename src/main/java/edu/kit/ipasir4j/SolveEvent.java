@@ -0,0 +1,35 @@
+package edu.kit.ipasir4j;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A JFR event recorded for calls to {@link Solver#solve()}.
+ */
+@Name("edu.kit.ipasir4j.Solve")
+@Label("Solve")
+@Category("ipasir4j")
+@Description("A call to ipasir_solve")
+@Threshold("1 ms")
+final class SolveEvent extends Event {
+
+  @Label("Result")
+  String result;
+
+  @Label("Variables")
+  @Description("Highest variable index passed to the solver")
+  int variables;
+
+  @Label("Clauses")
+  @Description("Number of clauses added to the solver")
+  long clauses;
+
+  @Label("Assumptions")
+  @Description("Number of assumptions made for this call")
+  int assumptions;
+
+}
@@ -1,13 +1,11 @@
 package edu.kit.ipasir4j;
 
 import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.util.NoSuchElementException;
 import jdk.incubator.foreign.CLinker;
 import jdk.incubator.foreign.FunctionDescriptor;
 import jdk.incubator.foreign.MemoryAddress;
-import jdk.incubator.foreign.ResourceScope;
 
 /**
  * A class representing an ipasir solver object.<br>
@@ -25,6 +23,12 @@ import jdk.incubator.foreign.ResourceScope;
  * an ipasir implementation must be loaded using {@link System#load(String)} or
  * {@link System#loadLibrary(String)}.
  *
+ * <p>Calls to {@link Ipasir#init()}, {@link #solve()} and {@link #release()} are reported as
+ * JDK Flight Recorder events in the {@code ipasir4j} category. By default, only events that take
+ * longer than 1 ms are recorded. The clauses added before each {@link #solve()} are reported as
+ * one event carrying the total time spent inside {@code ipasir_add}, excluding any time the
+ * application spends between calls to {@link #add(int)}.
+ *
  * <p>This class is not thread safe.
  *
  * @see Ipasir#init()
@@ -75,23 +79,19 @@ public final class Solver implements AutoCloseable {
       FunctionDescriptor.ofVoid(CLinker.C_POINTER, CLinker.C_POINTER,
           CLinker.C_INT, CLinker.C_POINTER));
 
-  // handles for upcalls
-  private static final MethodHandle TERMINATE_UPCALL_HANDLE
-      = findVirtual(SolverTerminateCallback.class,
-      "onTerminateQuestion",
-      MethodType.methodType(int.class, MemoryAddress.class));
-
-  private static final MethodHandle LEARN_UPCALL_HANDLE
-      = findVirtual(SolverLearnCallback.class,
-      "onClauseLearn",
-      MethodType.methodType(void.class, MemoryAddress.class, MemoryAddress.class));
-
   // pointer to the solver object
   private final MemoryAddress pointer;
 
-  // scopes used to manage callback function pointers
-  private ResourceScope terminateFunctionScope;
-  private ResourceScope learnFunctionScope;
+  // handles of this solver's slots in the callback registries, or -1 if none
+  private int terminateHandle = -1;
+  private int learnHandle = -1;
+
+  // statistics for JFR events
+  private int maxVariable;
+  private long clauses;
+  private int assumptions;
+  private ClauseBatchEvent clauseBatch;
+  private boolean timeClauseBatch;
 
   /**
    * Create a new solver based on the given solver pointer.
@@ -104,25 +104,32 @@ public final class Solver implements AutoCloseable {
     this.pointer = pointer;
   }
 
-  private static MethodHandle findVirtual(Class<?> c, String name, MethodType type) {
-    try {
-      return MethodHandles.publicLookup().findVirtual(c, name, type);
-    } catch (NoSuchMethodException | IllegalAccessException e) {
-      throw new AssertionError("Could not find virtual method", e);
-    }
-  }
-
   /**
    * Call {@code ipasir_add} on this solver.
    *
    * @param litOrZero A variable literal (-n or +n) or 0 to mark the end of the clause.
    */
   public void add(int litOrZero) {
+    if (clauseBatch == null) {
+      clauseBatch = new ClauseBatchEvent();
+      timeClauseBatch = clauseBatch.isEnabled();
+    }
+    long start = timeClauseBatch ? System.nanoTime() : 0;
     try {
       ADD.invokeExact(pointer, litOrZero);
     } catch (Throwable e) {
       throw new IpasirInvocationException(e);
     }
+    if (timeClauseBatch) {
+      clauseBatch.addTime += System.nanoTime() - start;
+    }
+    if (litOrZero == 0) {
+      clauses++;
+      clauseBatch.clauses++;
+    } else {
+      maxVariable = Math.max(maxVariable, Math.abs(litOrZero));
+      clauseBatch.literals++;
+    }
   }
 
   /**
@@ -136,6 +143,8 @@ public final class Solver implements AutoCloseable {
     } catch (Throwable e) {
       throw new IpasirInvocationException(e);
     }
+    maxVariable = Math.max(maxVariable, Math.abs(lit));
+    assumptions++;
   }
 
   /**
@@ -144,11 +153,35 @@ public final class Solver implements AutoCloseable {
    * @return A {@link Result} object that represents the result of the solving process.
    */
   public Result solve() {
+    commitClauseBatch();
+    var event = new SolveEvent();
+    event.begin();
+    Result result;
     try {
-      return Result.getByRepresentative((int) SOLVE.invokeExact(pointer));
+      result = Result.getByRepresentative((int) SOLVE.invokeExact(pointer));
     } catch (Throwable e) {
       throw new IpasirInvocationException(e);
     }
+    event.end();
+    if (event.shouldCommit()) {
+      event.result = result.name();
+      event.variables = maxVariable;
+      event.clauses = clauses;
+      event.assumptions = assumptions;
+      event.commit();
+    }
+    // ipasir clears assumptions after each solve
+    assumptions = 0;
+    return result;
+  }
+
+  private void commitClauseBatch() {
+    if (clauseBatch != null) {
+      if (clauseBatch.shouldCommit()) {
+        clauseBatch.commit();
+      }
+      clauseBatch = null;
+    }
   }
 
   /**
@@ -187,14 +220,13 @@ public final class Solver implements AutoCloseable {
    * @see AbstractTerminateCallback
    */
   public void setTerminate(MemoryAddress data, SolverTerminateCallback callback) {
-    overrideTerminateScope();
-    var callbackPointer = CLinker.getInstance().upcallStub(
-        TERMINATE_UPCALL_HANDLE.bindTo(callback),
-        FunctionDescriptor.of(CLinker.C_INT, CLinker.C_POINTER),
-        terminateFunctionScope
-    );
+    if (terminateHandle < 0) {
+      terminateHandle = CallbackRegistry.TERMINATE.allocate();
+    }
+    CallbackRegistry.TERMINATE.set(terminateHandle, data, callback);
     try {
-      SET_TERMINATE.invokeExact(pointer, data, callbackPointer);
+      SET_TERMINATE.invokeExact(pointer, CallbackRegistry.toAddress(terminateHandle),
+          CallbackRegistry.TERMINATE_STUB);
     } catch (Throwable e) {
       throw new IpasirInvocationException(e);
     }
@@ -208,59 +240,55 @@ public final class Solver implements AutoCloseable {
    * @param callback The learn callback.
    */
   public void setLearn(MemoryAddress data, int maxLength, SolverLearnCallback callback) {
-    overrideLearnScope();
-    var callbackPointer = CLinker.getInstance().upcallStub(
-        LEARN_UPCALL_HANDLE.bindTo(callback),
-        FunctionDescriptor.ofVoid(CLinker.C_POINTER, CLinker.C_POINTER),
-        learnFunctionScope
-    );
+    if (learnHandle < 0) {
+      learnHandle = CallbackRegistry.LEARN.allocate();
+    }
+    CallbackRegistry.LEARN.set(learnHandle, data, callback);
     try {
-      SET_LEARN.invokeExact(pointer, data, maxLength, callbackPointer);
+      SET_LEARN.invokeExact(pointer, CallbackRegistry.toAddress(learnHandle), maxLength,
+          CallbackRegistry.LEARN_STUB);
     } catch (Throwable e) {
       throw new IpasirInvocationException(e);
     }
   }
 
-  private void overrideTerminateScope() {
-    if (terminateFunctionScope != null) {
-      terminateFunctionScope.close();
-    }
-    terminateFunctionScope = ResourceScope.newSharedScope();
-  }
-
-  private void overrideLearnScope() {
-    if (learnFunctionScope != null) {
-      learnFunctionScope.close();
-    }
-    learnFunctionScope = ResourceScope.newSharedScope();
-  }
-
   /**
    * Call {@code ipasir_release} on this solver.
    *
    * @see #close()
    */
   public void release() {
+    commitClauseBatch();
+    var event = new ReleaseEvent();
+    event.begin();
     try {
       RELEASE.invokeExact(pointer);
     } catch (Throwable e) {
       throw new IpasirInvocationException(e);
     }
+    event.end();
+    if (event.shouldCommit()) {
+      event.variables = maxVariable;
+      event.clauses = clauses;
+      event.commit();
+    }
   }
 
   /**
    * Frees the resources associated with this solver, including the solver itself and possibly
-   * callback function pointers.<br>
+   * its callback registrations.<br>
    * The solver cannot be used anymore after a call to {@code close()}.
    */
   @Override
   public void close() {
     release();
-    if (terminateFunctionScope != null) {
-      terminateFunctionScope.close();
+    if (terminateHandle >= 0) {
+      CallbackRegistry.TERMINATE.free(terminateHandle);
+      terminateHandle = -1;
     }
-    if (learnFunctionScope != null) {
-      learnFunctionScope.close();
+    if (learnHandle >= 0) {
+      CallbackRegistry.LEARN.free(learnHandle);
+      learnHandle = -1;
     }
   }
 
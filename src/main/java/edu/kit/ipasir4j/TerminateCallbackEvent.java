@@ -0,0 +1,26 @@
+package edu.kit.ipasir4j;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A JFR event recorded for upcalls to {@link AbstractTerminateCallback}.
+ *
+ * <p>Terminate callbacks are invoked very frequently, so only unusually slow invocations are
+ * recorded by default.
+ */
+@Name("edu.kit.ipasir4j.TerminateCallback")
+@Label("Terminate Callback")
+@Category({"ipasir4j", "Callbacks"})
+@Description("A terminate callback deciding whether to stop the search")
+@Threshold("100 us")
+final class TerminateCallbackEvent extends Event {
+
+  @Label("Terminate")
+  boolean terminate;
+
+}
@@ -0,0 +1,87 @@
+package edu.kit.ipasir4j;
+
+import java.util.Set;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.MetadataDefinition;
+import jdk.jfr.Name;
+import jdk.jfr.SettingControl;
+import jdk.jfr.Timespan;
+
+/**
+ * A JFR setting for a threshold on a timespan field of an event, for events whose duration is not
+ * the quantity of interest.<br>
+ * Values use the same format as the built-in {@code threshold} setting, e.g. {@code "1 ms"}.
+ * If several recordings specify a value, the lowest one is used.
+ */
+@MetadataDefinition
+@Name("edu.kit.ipasir4j.TimespanThreshold")
+@Label("Timespan Threshold")
+@Description("Minimum value of a timespan field for an event to be recorded")
+@Timespan
+final class TimespanThresholdSetting extends SettingControl {
+
+  private static final String DEFAULT = "1 ms";
+
+  private String value = DEFAULT;
+  private long nanos = parseNanos(DEFAULT);
+
+  /**
+   * Creates a setting with the default threshold of 1 ms. Called by JFR.
+   */
+  TimespanThresholdSetting() {
+
+  }
+
+  @Override
+  public String combine(Set<String> values) {
+    String min = null;
+    long minNanos = Long.MAX_VALUE;
+    for (String v : values) {
+      long n = parseNanos(v);
+      if (n < minNanos) {
+        min = v;
+        minNanos = n;
+      }
+    }
+    return min == null ? DEFAULT : min;
+  }
+
+  @Override
+  public void setValue(String value) {
+    this.nanos = parseNanos(value);
+    this.value = value;
+  }
+
+  @Override
+  public String getValue() {
+    return value;
+  }
+
+  long getNanos() {
+    return nanos;
+  }
+
+  private static long parseNanos(String value) {
+    String[] parts = value.strip().split("\\s+");
+    long amount;
+    try {
+      amount = Long.parseLong(parts[0]);
+    } catch (NumberFormatException e) {
+      return Long.MAX_VALUE;
+    }
+    if (parts.length == 1) {
+      return amount == 0 ? 0 : Long.MAX_VALUE;
+    }
+    return switch (parts[1]) {
+      case "ns" -> amount;
+      case "us" -> amount * 1_000L;
+      case "ms" -> amount * 1_000_000L;
+      case "s" -> amount * 1_000_000_000L;
+      case "m" -> amount * 60_000_000_000L;
+      case "h" -> amount * 3_600_000_000_000L;
+      case "d" -> amount * 86_400_000_000_000L;
+      default -> Long.MAX_VALUE;
+    };
+  }
+}
@@ -4,6 +4,7 @@
 module edu.kit.ipasir4j {
 
   requires transitive jdk.incubator.foreign;
+  requires jdk.jfr;
 
   exports edu.kit.ipasir4j;
 
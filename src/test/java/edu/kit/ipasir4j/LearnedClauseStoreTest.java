@@ -0,0 +1,218 @@
+package edu.kit.ipasir4j;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LearnedClauseStoreTest {
+
+  // pigeonhole principle: 5 pigeons, 4 holes
+  private static final int[] FORMULA = pigeonhole(4);
+
+  private Path directory;
+
+  @BeforeAll
+  static void setUpLibrary() throws IOException {
+    SharedLibUtil.setUpLibrary();
+  }
+
+  @AfterAll
+  static void deleteLibrary() throws IOException {
+    SharedLibUtil.deleteLibrary();
+  }
+
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("ipasir4j");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Test
+  void testRecordAndPreload() throws IOException {
+    var store = new LearnedClauseStore(directory, 4, 1000);
+    var fingerprint = FormulaFingerprint.of(FORMULA);
+
+    int recorded;
+    try (var solver = Ipasir.init()) {
+      IntStream.of(FORMULA).forEach(solver::add);
+      try (var recorder = store.record(solver, fingerprint)) {
+        assertEquals(Solver.Result.UNSATISFIABLE, solver.solve());
+        recorded = recorder.flush();
+      }
+    }
+    assertTrue(recorded > 0);
+
+    try (var solver = Ipasir.init()) {
+      IntStream.of(FORMULA).forEach(solver::add);
+      assertEquals(Math.min(recorded, 1000), store.preload(solver, fingerprint));
+      assertEquals(Solver.Result.UNSATISFIABLE, solver.solve());
+    }
+  }
+
+  @Test
+  void testRecord_noDuplicates() throws IOException {
+    var store = new LearnedClauseStore(directory, 4, 1000);
+    var fingerprint = FormulaFingerprint.of(FORMULA);
+    var written = new int[2];
+    for (int i = 0; i < written.length; i++) {
+      try (var solver = Ipasir.init(); var recorder = store.record(solver, fingerprint)) {
+        IntStream.of(FORMULA).forEach(solver::add);
+        solver.solve();
+        written[i] = recorder.flush();
+      }
+    }
+    assertTrue(written[0] > 0);
+    assertEquals(0, written[1]);
+  }
+
+  @Test
+  void testRecord_concurrentRecorders() throws IOException {
+    var store = new LearnedClauseStore(directory, 4, 1000);
+    var fingerprint = FormulaFingerprint.of(FORMULA);
+    try (var first = Ipasir.init(); var second = Ipasir.init()) {
+      IntStream.of(FORMULA).forEach(first::add);
+      IntStream.of(FORMULA).forEach(second::add);
+      var firstRecorder = store.record(first, fingerprint);
+      var secondRecorder = store.record(second, fingerprint);
+      first.solve();
+      second.solve();
+      int written = firstRecorder.flush();
+      assertTrue(written > 0);
+      // both solvers learn the same clauses, so the second one has nothing new to add
+      assertEquals(0, secondRecorder.flush());
+      assertEquals(written, store.clauses(fingerprint).size());
+      firstRecorder.close();
+      secondRecorder.close();
+    }
+  }
+
+  @Test
+  void testRecord_tornTail() throws IOException {
+    var fingerprint = FormulaFingerprint.of(FORMULA);
+    var shortClauses = new LearnedClauseStore(directory, 2, 1000);
+    int first = recordOnce(shortClauses, fingerprint);
+    assertTrue(first > 0);
+
+    // simulate an interrupted write: the first byte of a multi-byte literal
+    Path log;
+    try (Stream<Path> files = Files.list(directory)) {
+      log = files.findFirst().orElseThrow();
+    }
+    Files.write(log, new byte[] {(byte) 0x85}, StandardOpenOption.APPEND);
+    assertEquals(first, shortClauses.clauses(fingerprint).size());
+
+    var longClauses = new LearnedClauseStore(directory, 8, 1000);
+    int second = recordOnce(longClauses, fingerprint);
+    assertTrue(second > 0);
+
+    var stored = longClauses.clauses(fingerprint);
+    assertEquals(first + second, stored.size());
+    int variables = 20;
+    for (int[] clause : stored) {
+      for (int lit : clause) {
+        assertTrue(lit != 0 && Math.abs(lit) <= variables);
+      }
+    }
+    try (var solver = Ipasir.init()) {
+      IntStream.of(FORMULA).forEach(solver::add);
+      assertEquals(first + second, longClauses.preload(solver, fingerprint));
+    }
+  }
+
+  @Test
+  void testPreload_differentFormula() throws IOException {
+    var store = new LearnedClauseStore(directory, 4, 1000);
+    var fingerprint = FormulaFingerprint.of(FORMULA);
+    recordOnce(store, fingerprint);
+
+    // simulate a fingerprint collision with a formula of a different size
+    var other = FormulaFingerprint.of(1, 2, 0);
+    try (Stream<Path> files = Files.list(directory)) {
+      Files.move(files.findFirst().orElseThrow(),
+          directory.resolve(String.format("%016x.lrn", other.value())));
+    }
+    try (var solver = Ipasir.init()) {
+      assertThrows(IOException.class, () -> store.preload(solver, other));
+      assertThrows(IOException.class, () -> store.record(solver, other));
+    }
+  }
+
+  @Test
+  void testPreload_seesClausesRecordedAfterFirstPreload() throws IOException {
+    var store = new LearnedClauseStore(directory, 4, 5);
+    var fingerprint = FormulaFingerprint.of(FORMULA);
+    try (var solver = Ipasir.init()) {
+      assertEquals(0, store.preload(solver, fingerprint));
+    }
+    assertTrue(recordOnce(store, fingerprint) > 5);
+    try (var solver = Ipasir.init()) {
+      IntStream.of(FORMULA).forEach(solver::add);
+      assertEquals(5, store.preload(solver, fingerprint));
+      assertEquals(Solver.Result.UNSATISFIABLE, solver.solve());
+    }
+  }
+
+  @Test
+  void testPreload_unknownFormula() throws IOException {
+    var store = new LearnedClauseStore(directory, 4, 1000);
+    try (var solver = Ipasir.init()) {
+      assertEquals(0, store.preload(solver, FormulaFingerprint.of(1, 2, 0)));
+    }
+  }
+
+  @Test
+  void testFingerprint() {
+    var fingerprint = FormulaFingerprint.of(1, -2, 0, 3, 0);
+    assertEquals(fingerprint.value(), FormulaFingerprint.of(1, -2, 0, 3, 0).value());
+    assertTrue(fingerprint.value() != FormulaFingerprint.of(1, 2, 0, 3, 0).value());
+    assertTrue(fingerprint.value() != FormulaFingerprint.of(1, -2, 3, 0, 0).value());
+    assertEquals(2, fingerprint.getClauses());
+    assertEquals(3, fingerprint.getLiterals());
+  }
+
+  private static int recordOnce(LearnedClauseStore store, FormulaFingerprint fingerprint)
+      throws IOException {
+    try (var solver = Ipasir.init(); var recorder = store.record(solver, fingerprint)) {
+      IntStream.of(FORMULA).forEach(solver::add);
+      solver.solve();
+      return recorder.flush();
+    }
+  }
+
+  static int[] pigeonhole(int holes) {
+    int pigeons = holes + 1;
+    var formula = IntStream.builder();
+    for (int p = 0; p < pigeons; p++) {
+      for (int h = 0; h < holes; h++) {
+        formula.add(p * holes + h + 1);
+      }
+      formula.add(0);
+    }
+    for (int h = 0; h < holes; h++) {
+      for (int p = 0; p < pigeons; p++) {
+        for (int q = p + 1; q < pigeons; q++) {
+          formula.add(-(p * holes + h + 1)).add(-(q * holes + h + 1)).add(0);
+        }
+      }
+    }
+    return formula.build().toArray();
+  }
+}
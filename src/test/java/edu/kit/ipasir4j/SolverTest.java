@@ -1,13 +1,22 @@
 package edu.kit.ipasir4j;
 
 import jdk.incubator.foreign.MemoryAddress;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.*;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SolverTest {
 
@@ -52,4 +61,122 @@ class SolverTest {
     var result = solver.solve();
     assertEquals(Solver.Result.UNSATISFIABLE, result);
   }
+
+  @Test
+  void testSetTerminate_reRegistration() {
+    var data = MemoryAddress.ofLong(42);
+    var firstCalls = new AtomicInteger();
+    var secondData = new AtomicInteger();
+    solver.setTerminate(data, d -> {
+      firstCalls.incrementAndGet();
+      return 0;
+    });
+    solver.setTerminate(data, d -> {
+      secondData.set((int) d.toRawLongValue());
+      return 1;
+    });
+    IntStream.of(1, 2, 3, 0, 1, 2, -3, 0, -1, 3, 0, -2, -3, 0).forEach(solver::add);
+    solver.solve();
+    assertEquals(0, firstCalls.get());
+    assertEquals(42, secondData.get());
+  }
+
+  @Test
+  void testSetLearn() {
+    var learned = new AtomicInteger();
+    var observedData = new AtomicReference<MemoryAddress>();
+    solver.setLearn(MemoryAddress.ofLong(7), 3, (data, clause) -> {
+      observedData.set(data);
+      learned.incrementAndGet();
+    });
+    // pigeonhole principle: 3 pigeons, 2 holes
+    IntStream.of(1, 2, 0, 3, 4, 0, 5, 6, 0, -1, -3, 0, -1, -5, 0, -3, -5, 0,
+        -2, -4, 0, -2, -6, 0, -4, -6, 0).forEach(solver::add);
+    assertEquals(Solver.Result.UNSATISFIABLE, solver.solve());
+    assertTrue(learned.get() > 0);
+    assertEquals(7, observedData.get().toRawLongValue());
+  }
+
+  @Test
+  void testSolve_flightRecorderEvents() throws IOException {
+    try (var recording = new Recording()) {
+      recording.enable("edu.kit.ipasir4j.Solve").withThreshold(Duration.ZERO);
+      recording.enable("edu.kit.ipasir4j.ClauseBatch").with("addTimeThreshold", "0 ns");
+      recording.start();
+      IntStream.of(1, 2, 0, -1, 0, -2, 3, 0, -3, 0).forEach(solver::add);
+      solver.assume(4);
+      solver.solve();
+      recording.stop();
+
+      var file = Files.createTempFile("ipasir4j", ".jfr");
+      try {
+        recording.dump(file);
+        var events = RecordingFile.readAllEvents(file);
+        var solve = events.stream()
+            .filter(e -> e.getEventType().getName().equals("edu.kit.ipasir4j.Solve"))
+            .findFirst()
+            .orElseThrow();
+        assertEquals("UNSATISFIABLE", solve.getString("result"));
+        assertEquals(4, solve.getInt("variables"));
+        assertEquals(4, solve.getLong("clauses"));
+        assertEquals(1, solve.getInt("assumptions"));
+        var batch = events.stream()
+            .filter(e -> e.getEventType().getName().equals("edu.kit.ipasir4j.ClauseBatch"))
+            .findFirst()
+            .orElseThrow();
+        assertEquals(4, batch.getLong("clauses"));
+        assertEquals(6, batch.getLong("literals"));
+        assertTrue(batch.getDuration("addTime").toNanos() > 0);
+      } finally {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Test
+  void testAdd_clauseBatchExcludesTimeBetweenAdds() throws IOException {
+    try (var recording = new Recording()) {
+      recording.enable("edu.kit.ipasir4j.ClauseBatch").with("addTimeThreshold", "0 ns");
+      recording.start();
+      IntStream.of(1, 2, 0).forEach(solver::add);
+      // simulate application work between adds, which must not count towards the batch
+      long end = System.nanoTime() + 50_000_000;
+      while (System.nanoTime() < end) {
+        Thread.onSpinWait();
+      }
+      IntStream.of(-1, 0).forEach(solver::add);
+      solver.solve();
+      recording.stop();
+
+      var batches = recordedEvents(recording, "edu.kit.ipasir4j.ClauseBatch");
+      assertEquals(1, batches.size());
+      assertTrue(batches.get(0).getDuration("addTime").toMillis() < 25);
+    }
+  }
+
+  @Test
+  void testAdd_clauseBatchBelowThresholdNotRecorded() throws IOException {
+    try (var recording = new Recording()) {
+      recording.enable("edu.kit.ipasir4j.ClauseBatch").with("addTimeThreshold", "1 s");
+      recording.start();
+      IntStream.of(1, 2, 0, -1, 0).forEach(solver::add);
+      solver.solve();
+      recording.stop();
+
+      assertTrue(recordedEvents(recording, "edu.kit.ipasir4j.ClauseBatch").isEmpty());
+    }
+  }
+
+  private static List<RecordedEvent> recordedEvents(Recording recording, String name)
+      throws IOException {
+    var file = Files.createTempFile("ipasir4j", ".jfr");
+    try {
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file).stream()
+          .filter(e -> e.getEventType().getName().equals(name))
+          .toList();
+    } finally {
+      Files.delete(file);
+    }
+  }
 }